@@ -0,0 +1,7 @@
+package test.task.pool;
+
+public interface Passivator<R> {
+
+    void passivate(R resource) throws Exception;
+
+}
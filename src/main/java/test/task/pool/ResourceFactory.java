@@ -0,0 +1,7 @@
+package test.task.pool;
+
+public interface ResourceFactory<R> {
+
+    R create() throws Exception;
+
+}
@@ -0,0 +1,110 @@
+package test.task.pool.impl;
+
+import test.task.pool.ResourceFactory;
+
+import java.util.concurrent.TimeUnit;
+
+public class AdaptivePoolSizer<R> implements Runnable {
+    private static final double HIGH_UTILIZATION = 0.9;
+    private static final double LOW_UTILIZATION = 0.5;
+    private static final double DECREASE_FACTOR = 0.75;
+    private static final int SHRINK_AFTER_SAMPLES = 3;
+
+    private final ConcurrentObjectPool<R> pool;
+    private final ResourceFactory<R> factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long targetWaitNanos;
+    private long lastAcquireCount;
+    private long lastAcquireWaitNanos;
+    private int lowUtilizationSamples;
+
+    public AdaptivePoolSizer(ConcurrentObjectPool<R> pool, ResourceFactory<R> factory,
+                             int minSize, int maxSize, long targetWait, TimeUnit timeUnit) {
+        if (pool == null || factory == null) {
+            throw new IllegalArgumentException("Pool and factory should not be null");
+        }
+        if (minSize <= 0 || maxSize < minSize) {
+            throw new IllegalArgumentException("Sizes should be positive and min size should not exceed max size");
+        }
+        // every acquire records some wait, zero target would make sizer grow on each sample
+        if (timeUnit == null || timeUnit.toNanos(targetWait) <= 0) {
+            throw new IllegalArgumentException("Target wait should be positive");
+        }
+        this.pool = pool;
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetWaitNanos = timeUnit.toNanos(targetWait);
+    }
+
+    @Override
+    public void run() {
+        sample();
+    }
+
+    public synchronized void sample() {
+        int busy = pool.getBusyCount();
+        int size = busy + pool.getAvailableCount();
+        long acquireCount = pool.getAcquireCount();
+        long acquireWaitNanos = pool.getAcquireWaitNanos();
+
+        long acquires = acquireCount - lastAcquireCount;
+        long averageWaitNanos = acquires == 0 ? 0 : (acquireWaitNanos - lastAcquireWaitNanos) / acquires;
+        double utilization = size == 0 ? 1 : (double) busy / size;
+        lastAcquireCount = acquireCount;
+        lastAcquireWaitNanos = acquireWaitNanos;
+
+        if (size < minSize || utilization >= HIGH_UTILIZATION || averageWaitNanos > targetWaitNanos) {
+            lowUtilizationSamples = 0;
+            grow(size);
+        } else if (utilization <= LOW_UTILIZATION) {
+            // hysteresis: shrink only after several consecutive idle samples
+            if (++lowUtilizationSamples >= SHRINK_AFTER_SAMPLES) {
+                lowUtilizationSamples = 0;
+                shrink(size);
+            }
+        } else {
+            lowUtilizationSamples = 0;
+        }
+    }
+
+    private void grow(int size) {
+        int target = Math.min(maxSize, Math.max(minSize, size + 1));
+        if (target <= size) {
+            return;
+        }
+        setMaxSize(target);
+        for (int i = size; i < target; i++) {
+            // capacity is checked before creation, so resources are not created only to be rejected by add.
+            // max size may still be lowered concurrently in between, then created resource is discarded
+            if (pool.getRemainingCapacity() <= 0) {
+                return;
+            }
+            try {
+                if (!pool.add(factory.create())) {
+                    return;
+                }
+            } catch (Exception e) {
+                // creation failed, next sample will retry
+                return;
+            }
+        }
+    }
+
+    private void shrink(int size) {
+        int target = Math.max(minSize, (int) (size * DECREASE_FACTOR));
+        if (target < size) {
+            setMaxSize(target);
+        }
+    }
+
+    private void setMaxSize(int target) {
+        try {
+            // max size is never lowered below reservations of partitions
+            pool.setMaxSize(Math.max(target, pool.getReservedSize()));
+        } catch (IllegalArgumentException e) {
+            // partition was created concurrently, next sample will retry
+        }
+    }
+}
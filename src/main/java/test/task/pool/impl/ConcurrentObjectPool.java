@@ -3,34 +3,116 @@ package test.task.pool.impl;
 import test.task.pool.IllegalObjectException;
 import test.task.pool.NotOpenedException;
 import test.task.pool.ObjectPool;
+import test.task.pool.Passivator;
+import test.task.pool.ResourceFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class ConcurrentObjectPool<R> implements ObjectPool<R> {
+    public static final int DEFAULT_PRIORITY = 0;
+    private static final long INITIAL_CREATION_BACKOFF_MILLIS = 50;
+    private static final long MAX_CREATION_BACKOFF_MILLIS = 10_000;
+    private static final int LIFETIME_SWEEPS = 10;
+    private static final long MIN_LIFETIME_SWEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
     private volatile boolean isOpened = false;
     private final Lock isOpenedLock = new ReentrantLock();
     private final Lock acquireLock = new ReentrantLock();
-    private final Condition acquireCondition = acquireLock.newCondition();
     private final Condition releaseCondition = acquireLock.newCondition();
     private final Condition removeCondition = acquireLock.newCondition();
-    private final Set<R> available = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final IndexedSet<R> available = new IndexedSet<>();
     private final Set<R> busy = Collections.newSetFromMap(new IdentityHashMap<>());
     private final Set<R> removeQueue = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<R, HealthScore> scores = new IdentityHashMap<>();
+    private final Map<R, Long> expirations = new IdentityHashMap<>();
+    private final Set<R> replaced = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final ConcurrentMap<String, PoolPartition<R>> partitions = new ConcurrentHashMap<>();
+    private final Set<R> resetting = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<CompletableFuture<Void>> closeFutures = new ArrayList<>();
+    private final Map<R, List<CompletableFuture<Boolean>>> removeFutures = new IdentityHashMap<>();
+    private final List<Runnable> completions = new ArrayList<>();
+    private final NavigableSet<Waiter> waiters = new TreeSet<>();
+    private long waiterSequence;
+    private long priorityAgingNanos = TimeUnit.SECONDS.toNanos(1);
+    private int maxSize = Integer.MAX_VALUE;
+    private int reservedSize;
+    private ResourceFactory<R> factory;
+    private Executor creationExecutor;
+    private int maxPendingCreations;
+    private int pendingCreations;
+    private int creationFailures;
+    private boolean creationBackoff;
+    private int owedReplacements;
+    private long maxLifetimeNanos;
+    private double lifetimeJitter;
+    private long lifetimeSweepNanos;
+    private ScheduledFuture<?> lifetimeSweep;
+    private SelectionStrategy selectionStrategy = SelectionStrategy.mostRecentlyReleased();
+    private Passivator<R> passivator;
+    private Executor passivationExecutor;
+    private long acquireCount;
+    private long acquireWaitNanos;
 
     public void open() {
         try {
-            isOpenedLock.lock();
-            isOpened = true;
+            acquireLock.lock();
+            // reopening would leave pending close futures (and their deadline) to act on the reopened pool
+            if (!closeFutures.isEmpty()) {
+                throw new IllegalStateException("Pool is being drained by closeAsync");
+            }
+            try {
+                isOpenedLock.lock();
+                isOpened = true;
+            } finally {
+                isOpenedLock.unlock();
+            }
+            startLifetimeSweep();
         } finally {
-            isOpenedLock.unlock();
+            acquireLock.unlock();
+        }
+    }
+
+    public WarmUpProgress open(WarmUp<R> warmUp) {
+        if (warmUp == null) {
+            throw new IllegalArgumentException("Warm up should not be null");
+        }
+        open();
+
+        WarmUpProgress progress = new WarmUpProgress(warmUp.getCount());
+        if (warmUp.getCount() == 0) {
+            return progress;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(warmUp.getParallelism(), warmUp.getCount()), runnable -> {
+            Thread thread = new Thread(runnable, "object-pool-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < warmUp.getCount(); i++) {
+            executor.execute(() -> warmUp(warmUp, progress));
         }
+        executor.shutdown();
+        return progress;
     }
 
     public boolean isOpen() {
@@ -52,16 +134,17 @@ public class ConcurrentObjectPool<R> implements ObjectPool<R> {
 
         try {
             acquireLock.lock();
+            wakePartitions();
             while (!busy.isEmpty()) {
                 releaseCondition.await();
             }
             cleanUp();
         } finally {
-            acquireLock.unlock();
+            unlockAndComplete();
         }
     }
 
-    public void closeNow() {
+    public CompletableFuture<Void> closeAsync() {
         try {
             isOpenedLock.lock();
             isOpened = false;
@@ -69,56 +152,105 @@ public class ConcurrentObjectPool<R> implements ObjectPool<R> {
             isOpenedLock.unlock();
         }
 
+        CompletableFuture<Void> future = new CompletableFuture<>();
         try {
             acquireLock.lock();
-            cleanUp();
+            closeFutures.add(future);
+            if (busy.isEmpty()) {
+                cleanUp();
+            } else {
+                // drain: waiting acquirers fail fast, busy resources complete the future on release
+                signalAllWaiters();
+                wakePartitions();
+            }
         } finally {
-            acquireLock.unlock();
+            unlockAndComplete();
         }
+        return future;
     }
 
+    public CompletableFuture<Void> closeAsync(long timeout, TimeUnit timeUnit) {
+        validateTimeout(timeout, timeUnit);
 
-    public R acquire() throws NotOpenedException, InterruptedException {
-        checkIsOpened();
+        CompletableFuture<Void> future = closeAsync();
+        if (!future.isDone()) {
+            ScheduledFuture<?> deadline = Delayer.schedule(this::closeNow, timeout, timeUnit);
+            future.whenComplete((result, throwable) -> deadline.cancel(false));
+        }
+        return future;
+    }
+
+    public void closeNow() {
+        try {
+            isOpenedLock.lock();
+            isOpened = false;
+        } finally {
+            isOpenedLock.unlock();
+        }
 
         try {
             acquireLock.lock();
-            while (available.isEmpty() && isOpened) {
-                acquireCondition.await();
-            }
-            return get(false);
+            cleanUp();
         } finally {
-            acquireLock.unlock();
+            unlockAndComplete();
         }
     }
 
+
+    public R acquire() throws NotOpenedException, InterruptedException {
+        return acquire(DEFAULT_PRIORITY);
+    }
+
     public R acquire(long timeout, TimeUnit timeUnit) throws NotOpenedException, InterruptedException {
+        return acquire(DEFAULT_PRIORITY, timeout, timeUnit);
+    }
+
+    public R acquire(int priority) throws NotOpenedException, InterruptedException {
+        return acquire(priority, false, 0);
+    }
+
+    public R acquire(int priority, long timeout, TimeUnit timeUnit) throws NotOpenedException, InterruptedException {
         validateTimeout(timeout, timeUnit);
-        checkIsOpened();
+        return acquire(priority, true, timeUnit.toNanos(timeout));
+    }
 
-        try {
-            acquireLock.lock();
-            if (available.isEmpty()) {
-                acquireCondition.await(timeout, timeUnit);
-                return get(true);
-            }
-            return get(false);
-        } finally {
-            acquireLock.unlock();
+    public void release(R resource) throws IllegalObjectException {
+        release(resource, false, true, 0);
+    }
+
+    public void release(R resource, boolean success, long latency, TimeUnit timeUnit) throws IllegalObjectException {
+        if (latency < 0 || timeUnit == null) {
+            throw new IllegalArgumentException("Latency should not be negative");
         }
+        release(resource, true, success, timeUnit.toNanos(latency));
     }
 
-    public void release(R resource) throws IllegalObjectException {
+    private void release(R resource, boolean reported, boolean success, long latencyNanos) throws IllegalObjectException {
         validateResource(resource);
 
+        Passivator<R> passivator;
+        Executor executor;
         try {
             acquireLock.lock();
-            put(resource);
-            releaseCondition.signal();
-            acquireCondition.signal();
+            if (reported && busy.contains(resource)) {
+                scores.computeIfAbsent(resource, key -> new HealthScore()).update(success, latencyNanos);
+            }
+            passivator = this.passivator;
+            executor = passivationExecutor;
+            // resource stays busy while it is being reset, so close and remove keep waiting for it
+            if (passivator == null || !busy.contains(resource) || removeQueue.contains(resource) || isExpired(resource)) {
+                put(resource, true);
+                releaseCondition.signal();
+                signalNextWaiter();
+                return;
+            }
+            if (!resetting.add(resource)) {
+                return;
+            }
         } finally {
-            acquireLock.unlock();
+            unlockAndComplete();
         }
+        passivate(resource, passivator, executor);
     }
 
     public boolean add(R resource) throws IllegalObjectException {
@@ -126,8 +258,14 @@ public class ConcurrentObjectPool<R> implements ObjectPool<R> {
 
         try {
             acquireLock.lock();
+            if (size() >= maxSize) {
+                return false;
+            }
             boolean modified = available.add(resource);
-            acquireCondition.signal();
+            if (modified) {
+                track(resource);
+            }
+            signalNextWaiter();
             return modified;
         } finally {
             acquireLock.unlock();
@@ -139,6 +277,7 @@ public class ConcurrentObjectPool<R> implements ObjectPool<R> {
         try {
             acquireLock.lock();
             if (available.remove(resource)) {
+                forget(resource);
                 return true;
             }
             if (busy.contains(resource)) {
@@ -155,48 +294,410 @@ public class ConcurrentObjectPool<R> implements ObjectPool<R> {
         return false;
     }
 
+    public CompletableFuture<Boolean> removeAsync(R resource) throws IllegalObjectException {
+        validateResource(resource);
+
+        try {
+            acquireLock.lock();
+            if (available.remove(resource)) {
+                forget(resource);
+                return CompletableFuture.completedFuture(true);
+            }
+            if (busy.contains(resource)) {
+                removeQueue.add(resource);
+                CompletableFuture<Boolean> future = new CompletableFuture<>();
+                removeFutures.computeIfAbsent(resource, key -> new ArrayList<>()).add(future);
+                return future;
+            }
+        } finally {
+            acquireLock.unlock();
+        }
+        return CompletableFuture.completedFuture(false);
+    }
+
     public boolean removeNow(R resource) throws IllegalObjectException {
         validateResource(resource);
 
         try {
             acquireLock.lock();
             if (available.remove(resource)) {
+                forget(resource);
                 return true;
             }
             if (removeQueue.contains(resource)) {
                 removeQueue.remove(resource);
                 removeCondition.signalAll();
+                completeRemoval(resource);
             }
             if (busy.contains(resource)) {
                 busy.remove(resource);
+                forget(resource);
+                completeDrain();
                 return true;
             }
         } finally {
-            acquireLock.unlock();
+            unlockAndComplete();
         }
         return false;
     }
 
+    public void setFactory(ResourceFactory<R> factory, int maxPendingCreations, Executor executor) {
+        if (factory != null && (executor == null || maxPendingCreations <= 0)) {
+            throw new IllegalArgumentException("Executor should not be null and max pending creations should be positive");
+        }
+
+        try {
+            acquireLock.lock();
+            this.factory = factory;
+            this.maxPendingCreations = maxPendingCreations;
+            this.creationExecutor = executor;
+            requestCreations();
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public int getPendingCreations() {
+        try {
+            acquireLock.lock();
+            return pendingCreations;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public void setMaxLifetime(long maxLifetime, TimeUnit timeUnit, double jitter) {
+        if (maxLifetime < 0 || timeUnit == null) {
+            throw new IllegalArgumentException("Max lifetime should not be negative");
+        }
+        if (jitter < 0 || jitter >= 1) {
+            throw new IllegalArgumentException("Jitter should be between 0 inclusive and 1 exclusive");
+        }
+
+        try {
+            acquireLock.lock();
+            maxLifetimeNanos = timeUnit.toNanos(maxLifetime);
+            lifetimeJitter = jitter;
+            expirations.clear();
+            replaced.clear();
+            stopLifetimeSweep();
+            // zero lifetime disables retirement and stops the sweep
+            if (maxLifetimeNanos == 0) {
+                return;
+            }
+            for (R item : available) {
+                track(item);
+            }
+            for (R item : busy) {
+                track(item);
+            }
+            lifetimeSweepNanos = Math.max(MIN_LIFETIME_SWEEP_NANOS, maxLifetimeNanos / LIFETIME_SWEEPS);
+            startLifetimeSweep();
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public void setSelectionStrategy(SelectionStrategy selectionStrategy) {
+        if (selectionStrategy == null) {
+            throw new IllegalArgumentException("Selection strategy should not be null");
+        }
+
+        try {
+            acquireLock.lock();
+            this.selectionStrategy = selectionStrategy;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public double getHealthScore(R resource) {
+        try {
+            acquireLock.lock();
+            return score(resource);
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public void setPassivator(Passivator<R> passivator, Executor executor) {
+        if (passivator != null && executor == null) {
+            throw new IllegalArgumentException("Executor should not be null");
+        }
+
+        try {
+            acquireLock.lock();
+            this.passivator = passivator;
+            this.passivationExecutor = executor;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public PoolPartition<R> createPartition(String name, int reserved, int ceiling) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name should not be null");
+        }
+        if (reserved < 0 || ceiling <= 0 || reserved > ceiling) {
+            throw new IllegalArgumentException("Reserved should not be negative and should not exceed positive ceiling");
+        }
+
+        try {
+            acquireLock.lock();
+            if (partitions.containsKey(name)) {
+                throw new IllegalArgumentException("Partition " + name + " already exists");
+            }
+            // reservation is a priority boost, not held capacity, so reservations must at least fit into pool
+            if ((long) reservedSize + reserved > maxSize) {
+                throw new IllegalArgumentException("Reservations of all partitions should not exceed max size");
+            }
+            PoolPartition<R> partition = new PoolPartition<>(this, name, reserved, ceiling);
+            partitions.put(name, partition);
+            reservedSize += reserved;
+            return partition;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public PoolPartition<R> getPartition(String name) {
+        return partitions.get(name);
+    }
+
+    public void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size should be positive");
+        }
+
+        try {
+            acquireLock.lock();
+            if (maxSize < reservedSize) {
+                throw new IllegalArgumentException("Max size should not be less than reservations of all partitions");
+            }
+            this.maxSize = maxSize;
+            Iterator<R> iterator = available.iterator();
+            while (size() > maxSize && iterator.hasNext()) {
+                forget(iterator.next());
+                iterator.remove();
+            }
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public int trimIdle(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Fraction should be between 0 and 1");
+        }
+
+        try {
+            acquireLock.lock();
+            int count = (int) Math.ceil(available.size() * fraction);
+            Iterator<R> iterator = available.iterator();
+            for (int i = 0; i < count; i++) {
+                forget(iterator.next());
+                iterator.remove();
+            }
+            return count;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public void setPriorityAging(long interval, TimeUnit timeUnit) {
+        if (interval <= 0 || timeUnit == null) {
+            throw new IllegalArgumentException("Priority aging interval should be positive");
+        }
+
+        try {
+            acquireLock.lock();
+            priorityAgingNanos = timeUnit.toNanos(interval);
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public int getMaxSize() {
+        try {
+            acquireLock.lock();
+            return maxSize;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public int getReservedSize() {
+        try {
+            acquireLock.lock();
+            return reservedSize;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public int getRemainingCapacity() {
+        try {
+            acquireLock.lock();
+            return maxSize - size();
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public int getAvailableCount() {
+        try {
+            acquireLock.lock();
+            return available.size();
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public int getBusyCount() {
+        try {
+            acquireLock.lock();
+            return busy.size();
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public long getAcquireCount() {
+        try {
+            acquireLock.lock();
+            return acquireCount;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public long getAcquireWaitNanos() {
+        try {
+            acquireLock.lock();
+            return acquireWaitNanos;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
     @Override
     public String toString() {
         return "ConcurrentObjectPool{" +
-                "available=" + available +
+                "maxSize=" + maxSize +
+                ", available=" + available +
                 ", busy=" + busy +
                 ", removeQueue=" + removeQueue +
+                ", resetting=" + resetting +
                 '}';
     }
 
+    private void warmUp(WarmUp<R> warmUp, WarmUpProgress progress) {
+        if (!isOpened) {
+            progress.onFailed();
+            return;
+        }
+        try {
+            // every resource is published as soon as it is created, acquirers do not wait for the whole warm up
+            if (publish(warmUp.getFactory().create())) {
+                progress.onCreated();
+            } else {
+                progress.onFailed();
+            }
+        } catch (Exception e) {
+            progress.onFailed();
+        }
+    }
+
+    private boolean publish(R resource) throws IllegalObjectException {
+        try {
+            acquireLock.lock();
+            // pool may be closed while resource is created, closed pool must stay empty
+            return isOpened && add(resource);
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    private R acquire(int priority, boolean timed, long nanos) throws NotOpenedException, InterruptedException {
+        checkIsOpened();
+
+        long start = System.nanoTime();
+        Waiter waiter = null;
+        try {
+            acquireLock.lock();
+            // newcomers do not overtake queued waiters, only the head of the queue takes an available resource
+            while (isOpened && (available.isEmpty() || (waiter == null ? !waiters.isEmpty() : waiters.first() != waiter))) {
+                if (timed && nanos <= 0) {
+                    if (waiter == null ? !waiters.isEmpty() : waiters.first() != waiter) {
+                        // timed out behind other waiters, resource (if any) belongs to the head of the queue
+                        recordWait(start);
+                        return null;
+                    }
+                    break;
+                }
+                if (waiter == null) {
+                    waiter = new Waiter(rank(start, priority), waiterSequence++, acquireLock.newCondition());
+                    waiters.add(waiter);
+                    requestCreations();
+                    // newcomer may have become head after previous head was signalled, nobody would signal it
+                    continue;
+                }
+                // signal for available resource could be meant for this waiter before it was overtaken, pass it on
+                signalNextWaiter();
+                if (timed) {
+                    nanos = waiter.condition.awaitNanos(nanos);
+                } else {
+                    waiter.condition.await();
+                }
+                if (waiter.resource != null && isOpened) {
+                    R element = waiter.resource;
+                    waiter.resource = null;
+                    recordWait(start);
+                    return element;
+                }
+            }
+            R element = get(timed);
+            recordWait(start);
+            return element;
+        } finally {
+            if (waiter != null) {
+                waiters.remove(waiter);
+                if (waiter.resource != null) {
+                    // resource was handed off but acquire failed (interrupted or closed)
+                    put(waiter.resource, true);
+                }
+            }
+            signalNextWaiter();
+            unlockAndComplete();
+        }
+    }
+
+    private long rank(long start, int priority) {
+        // one aging interval of waiting is worth one priority level, so low priorities are not starved.
+        // arithmetic saturates, so huge priorities or aging intervals do not overflow the order
+        long boost;
+        try {
+            boost = Math.multiplyExact(priority, priorityAgingNanos);
+        } catch (ArithmeticException e) {
+            boost = priority > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        try {
+            return Math.subtractExact(start, boost);
+        } catch (ArithmeticException e) {
+            return boost > 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
     private R get(boolean nullable) throws NotOpenedException {
         try {
             isOpenedLock.lock();
             if (!isOpened) {
                 throw new NotOpenedException();
             }
-            Iterator<R> iterator = available.iterator();
             R element = null;
-            if (iterator.hasNext()) {
-                element = iterator.next();
-                iterator.remove();
+            if (!available.isEmpty()) {
+                int index = selectionStrategy.select(available.size(), i -> score(available.get(i)));
+                element = available.removeAt(index);
                 busy.add(element);
             }
             if (element == null && !nullable) {
@@ -208,16 +709,291 @@ public class ConcurrentObjectPool<R> implements ObjectPool<R> {
         }
     }
 
-    private void put(R item) {
+    private void put(R item, boolean reusable) {
         boolean removed = busy.remove(item);
         // @TODO: unknown element?
         if (removed) {
             boolean shouldBeRemoved = removeQueue.remove(item);
             if (shouldBeRemoved) {
                 removeCondition.signalAll();
-            } else {
+                completeRemoval(item);
+                forget(item);
+            } else if (isExpired(item)) {
+                retire(item);
+            } else if (reusable && size() < maxSize) {
                 available.add(item);
+            } else {
+                forget(item);
             }
+            completeDrain();
+        }
+    }
+
+    private void requestCreations() {
+        if (factory == null || !isOpened || creationBackoff || !available.isEmpty()) {
+            return;
+        }
+        // bounded number of creations in flight, never more than there are waiters to serve
+        while (pendingCreations < maxPendingCreations && pendingCreations < waiters.size()
+                && size() + pendingCreations < maxSize) {
+            pendingCreations++;
+            ResourceFactory<R> factory = this.factory;
+            try {
+                creationExecutor.execute(() -> create(factory, false, null));
+            } catch (RejectedExecutionException e) {
+                pendingCreations--;
+                onCreationFailed();
+                return;
+            }
+        }
+    }
+
+    private void create(ResourceFactory<R> factory, boolean replacement, R target) {
+        R item = null;
+        try {
+            item = factory.create();
+        } catch (Exception e) {
+            // handled as failure below
+        }
+
+        try {
+            acquireLock.lock();
+            pendingCreations--;
+            if (item == null) {
+                if (replacement && !replaced.remove(target)) {
+                    // replaced resource is already retired, replacement is retried after backoff
+                    owedReplacements++;
+                }
+                // otherwise replaced resource takes capacity again, next sweep after backoff retries
+                onCreationFailed();
+            } else {
+                creationFailures = 0;
+                handOff(item);
+            }
+            replaceOwed();
+            requestCreations();
+        } finally {
+            unlockAndComplete();
+        }
+    }
+
+    private void handOff(R item) {
+        if (!isOpened) {
+            return;
+        }
+        Waiter waiter = waiters.pollFirst();
+        if (waiter != null) {
+            // created resource goes directly to the head waiter, newcomers can not steal it
+            waiter.resource = item;
+            busy.add(item);
+            track(item);
+            waiter.condition.signal();
+        } else if (size() < maxSize) {
+            available.add(item);
+            track(item);
+        }
+    }
+
+    private void onCreationFailed() {
+        if (creationBackoff) {
+            return;
+        }
+        creationFailures++;
+        long delay = Math.min(MAX_CREATION_BACKOFF_MILLIS, INITIAL_CREATION_BACKOFF_MILLIS << Math.min(creationFailures - 1, 20));
+        creationBackoff = true;
+        Delayer.schedule(this::onCreationBackoffElapsed, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void onCreationBackoffElapsed() {
+        try {
+            acquireLock.lock();
+            creationBackoff = false;
+            replaceOwed();
+            requestCreations();
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    private void passivate(R item, Passivator<R> passivator, Executor executor) {
+        try {
+            executor.execute(() -> {
+                boolean reset;
+                try {
+                    passivator.passivate(item);
+                    reset = true;
+                } catch (Exception e) {
+                    reset = false;
+                }
+                onPassivated(item, reset);
+            });
+        } catch (RejectedExecutionException e) {
+            onPassivated(item, false);
+        }
+    }
+
+    private void track(R item) {
+        if (maxLifetimeNanos > 0) {
+            // jitter staggers retirement of resources created at the same time
+            double lifetime = maxLifetimeNanos * (1 - lifetimeJitter * ThreadLocalRandom.current().nextDouble());
+            expirations.put(item, System.nanoTime() + (long) lifetime);
+        }
+    }
+
+    private boolean isExpired(R item) {
+        Long expiration = expirations.get(item);
+        return expiration != null && System.nanoTime() - expiration >= 0;
+    }
+
+    private void retire(R item) {
+        boolean wasReplaced = replaced.contains(item);
+        forget(item);
+        if (!wasReplaced && !replace(null) && factory != null && isOpened) {
+            owedReplacements++;
+        }
+    }
+
+    private void replaceOwed() {
+        while (owedReplacements > 0 && replace(null)) {
+            owedReplacements--;
+        }
+    }
+
+    private boolean replace(R target) {
+        if (factory == null || !isOpened || creationBackoff || pendingCreations >= maxPendingCreations) {
+            return false;
+        }
+        pendingCreations++;
+        ResourceFactory<R> factory = this.factory;
+        try {
+            creationExecutor.execute(() -> create(factory, true, target));
+            return true;
+        } catch (RejectedExecutionException e) {
+            pendingCreations--;
+            return false;
+        }
+    }
+
+    boolean isLifetimeSweepScheduled() {
+        try {
+            acquireLock.lock();
+            return lifetimeSweep != null;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    private void startLifetimeSweep() {
+        // sweep runs only while pool is opened, so closed pool is not referenced by the shared delayer
+        if (maxLifetimeNanos > 0 && isOpened && lifetimeSweep == null) {
+            lifetimeSweep = Delayer.scheduleWithFixedDelay(this::sweepExpired, lifetimeSweepNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void stopLifetimeSweep() {
+        if (lifetimeSweep != null) {
+            lifetimeSweep.cancel(false);
+            lifetimeSweep = null;
+        }
+    }
+
+    private void sweepExpired() {
+        try {
+            acquireLock.lock();
+            if (!isOpened) {
+                return;
+            }
+            Iterator<R> iterator = available.iterator();
+            while (iterator.hasNext()) {
+                R item = iterator.next();
+                if (isExpired(item)) {
+                    iterator.remove();
+                    retire(item);
+                }
+            }
+            // resources expiring before the next sweep get replacements in advance, so capacity does not dip
+            long deadline = System.nanoTime() + lifetimeSweepNanos;
+            List<R> expiring = new ArrayList<>();
+            for (Map.Entry<R, Long> entry : expirations.entrySet()) {
+                if (deadline - entry.getValue() >= 0 && !replaced.contains(entry.getKey())) {
+                    expiring.add(entry.getKey());
+                }
+            }
+            for (R item : expiring) {
+                replaced.add(item);
+                if (!replace(item)) {
+                    replaced.remove(item);
+                    break;
+                }
+            }
+        } finally {
+            unlockAndComplete();
+        }
+    }
+
+    private void forget(R item) {
+        scores.remove(item);
+        expirations.remove(item);
+        replaced.remove(item);
+    }
+
+    private void onPassivated(R item, boolean reset) {
+        try {
+            acquireLock.lock();
+            // not resetting anymore means pool was cleaned up in the meantime
+            if (resetting.remove(item)) {
+                put(item, reset);
+                releaseCondition.signal();
+                signalNextWaiter();
+            }
+        } finally {
+            unlockAndComplete();
+        }
+    }
+
+    private void completeRemoval(R item) {
+        List<CompletableFuture<Boolean>> futures = removeFutures.remove(item);
+        if (futures != null) {
+            for (CompletableFuture<Boolean> future : futures) {
+                completions.add(() -> future.complete(true));
+            }
+        }
+    }
+
+    private void completeDrain() {
+        if (!isOpened && busy.isEmpty() && !closeFutures.isEmpty()) {
+            cleanUp();
+        }
+    }
+
+    private void unlockAndComplete() {
+        // futures are completed outside of the lock, so dependent stages never run while holding it
+        List<Runnable> pending = completions.isEmpty() ? Collections.emptyList() : new ArrayList<>(completions);
+        completions.clear();
+        acquireLock.unlock();
+        for (Runnable completion : pending) {
+            completion.run();
+        }
+    }
+
+    private double score(R item) {
+        HealthScore score = scores.get(item);
+        return score == null ? 0 : score.get();
+    }
+
+    private int size() {
+        // resources which already have a replacement do not take capacity
+        return available.size() + busy.size() - replaced.size();
+    }
+
+    private void recordWait(long start) {
+        acquireCount++;
+        acquireWaitNanos += System.nanoTime() - start;
+    }
+
+    private void signalNextWaiter() {
+        if (!available.isEmpty() && !waiters.isEmpty()) {
+            waiters.first().condition.signal();
         }
     }
 
@@ -236,10 +1012,37 @@ public class ConcurrentObjectPool<R> implements ObjectPool<R> {
         busy.clear();
         available.clear();
         removeQueue.clear();
+        resetting.clear();
+        scores.clear();
+        expirations.clear();
+        replaced.clear();
+        owedReplacements = 0;
+        stopLifetimeSweep();
+
+        for (R item : new ArrayList<>(removeFutures.keySet())) {
+            completeRemoval(item);
+        }
+        for (CompletableFuture<Void> future : closeFutures) {
+            completions.add(() -> future.complete(null));
+        }
+        closeFutures.clear();
 
         releaseCondition.signalAll();
-        acquireCondition.signalAll();
         removeCondition.signalAll();
+        signalAllWaiters();
+        wakePartitions();
+    }
+
+    private void wakePartitions() {
+        for (PoolPartition<R> partition : partitions.values()) {
+            partition.wakeUp();
+        }
+    }
+
+    private void signalAllWaiters() {
+        for (Waiter waiter : waiters) {
+            waiter.condition.signal();
+        }
     }
 
     private void validateResource(R resource) throws IllegalObjectException {
@@ -256,4 +1059,23 @@ public class ConcurrentObjectPool<R> implements ObjectPool<R> {
             throw new IllegalArgumentException("Time unit should not be null");
         }
     }
+
+    private final class Waiter implements Comparable<Waiter> {
+        private final long rank;
+        private final long sequence;
+        private final Condition condition;
+        private R resource;
+
+        private Waiter(long rank, long sequence, Condition condition) {
+            this.rank = rank;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int result = Long.compare(rank, other.rank);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
 }
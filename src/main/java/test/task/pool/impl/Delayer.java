@@ -0,0 +1,28 @@
+package test.task.pool.impl;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+final class Delayer {
+    private static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "object-pool-delayer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        EXECUTOR.setRemoveOnCancelPolicy(true);
+    }
+
+    private Delayer() {
+    }
+
+    static ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit timeUnit) {
+        return EXECUTOR.schedule(command, delay, timeUnit);
+    }
+
+    static ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long delay, TimeUnit timeUnit) {
+        return EXECUTOR.scheduleWithFixedDelay(command, delay, delay, timeUnit);
+    }
+}
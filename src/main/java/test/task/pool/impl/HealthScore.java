@@ -0,0 +1,32 @@
+package test.task.pool.impl;
+
+final class HealthScore {
+    private static final double ALPHA = 0.3;
+    private static final double FAILURE_PENALTY_NANOS = 1_000_000_000;
+
+    private double latencyNanos;
+    private double failureRate;
+    private boolean initialized;
+
+    void update(boolean success, long latencyNanos) {
+        double failure = success ? 0 : 1;
+        if (!initialized) {
+            // first sample seeds the averages, otherwise new resources would look healthier than they are
+            this.latencyNanos = latencyNanos;
+            this.failureRate = failure;
+            initialized = true;
+            return;
+        }
+        this.latencyNanos += ALPHA * (latencyNanos - this.latencyNanos);
+        this.failureRate += ALPHA * (failure - failureRate);
+    }
+
+    double get() {
+        return latencyNanos + failureRate * FAILURE_PENALTY_NANOS;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(get());
+    }
+}
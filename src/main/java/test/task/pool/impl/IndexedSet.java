@@ -0,0 +1,98 @@
+package test.task.pool.impl;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// identity based set with O(1) add, remove and access by index, removal moves the last element into the freed index
+final class IndexedSet<E> extends AbstractSet<E> {
+    private final List<E> elements = new ArrayList<>();
+    private final Map<E, Integer> indexes = new IdentityHashMap<>();
+
+    @Override
+    public boolean add(E element) {
+        if (indexes.containsKey(element)) {
+            return false;
+        }
+        indexes.put(element, elements.size());
+        elements.add(element);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        Integer index = indexes.get(element);
+        if (index == null) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return indexes.containsKey(element);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public void clear() {
+        elements.clear();
+        indexes.clear();
+    }
+
+    E get(int index) {
+        return elements.get(index);
+    }
+
+    E removeAt(int index) {
+        E element = elements.get(index);
+        E last = elements.remove(elements.size() - 1);
+        if (last != element) {
+            elements.set(index, last);
+            indexes.put(last, index);
+        }
+        indexes.remove(element);
+        return element;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        // iterates from the end, so removal of the current element does not move elements not visited yet
+        return new Iterator<E>() {
+            private int next = elements.size() - 1;
+            private int current = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public E next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                current = next--;
+                return elements.get(current);
+            }
+
+            @Override
+            public void remove() {
+                if (current < 0) {
+                    throw new IllegalStateException();
+                }
+                removeAt(current);
+                current = -1;
+            }
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package test.task.pool.impl;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MemoryPressureMonitor implements NotificationListener {
+    // thresholds of memory pool beans are shared by the whole JVM, so they are owned by all started monitors together
+    private static final Map<MemoryPoolMXBean, long[]> PREVIOUS_THRESHOLDS = new IdentityHashMap<>();
+    private static final List<MemoryPressureMonitor> STARTED_MONITORS = new ArrayList<>();
+
+    private final ConcurrentObjectPool<?> pool;
+    private final double usageThreshold;
+    private boolean started;
+
+    public MemoryPressureMonitor(ConcurrentObjectPool<?> pool, double usageThreshold) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool should not be null");
+        }
+        if (usageThreshold <= 0 || usageThreshold >= 1) {
+            throw new IllegalArgumentException("Usage threshold should be between 0 and 1");
+        }
+        this.pool = pool;
+        this.usageThreshold = usageThreshold;
+    }
+
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        register(this);
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(this, null, null);
+        started = true;
+    }
+
+    public synchronized void stop() {
+        if (!started) {
+            return;
+        }
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(this);
+        } catch (ListenerNotFoundException e) {
+            // already removed
+        }
+        unregister(this);
+        started = false;
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        String type = notification.getType();
+        if (MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type)
+                || MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(type)) {
+            onUsage(MemoryNotificationInfo.from((CompositeData) notification.getUserData()).getUsage());
+        }
+    }
+
+    int onUsage(MemoryUsage usage) {
+        long max = usage.getMax();
+        if (max <= 0) {
+            return 0;
+        }
+        long threshold = (long) (max * usageThreshold);
+        // pressure grows from 0 at threshold to 1 at max, idle resources are trimmed in proportion
+        double pressure = (double) (usage.getUsed() - threshold) / (max - threshold);
+        if (pressure <= 0) {
+            return 0;
+        }
+        return pool.trimIdle(Math.min(1, pressure));
+    }
+
+    private static synchronized void register(MemoryPressureMonitor monitor) {
+        // previous values are saved by the first started monitor only and restored when the last one stops
+        if (STARTED_MONITORS.isEmpty()) {
+            for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (memoryPool.getType() != MemoryType.HEAP || memoryPool.getUsage().getMax() <= 0) {
+                    continue;
+                }
+                long[] previous = new long[2];
+                if (memoryPool.isUsageThresholdSupported()) {
+                    previous[0] = memoryPool.getUsageThreshold();
+                }
+                if (memoryPool.isCollectionUsageThresholdSupported()) {
+                    previous[1] = memoryPool.getCollectionUsageThreshold();
+                }
+                PREVIOUS_THRESHOLDS.put(memoryPool, previous);
+            }
+        }
+        STARTED_MONITORS.add(monitor);
+        applyThresholds();
+    }
+
+    private static synchronized void unregister(MemoryPressureMonitor monitor) {
+        STARTED_MONITORS.remove(monitor);
+        if (!STARTED_MONITORS.isEmpty()) {
+            applyThresholds();
+            return;
+        }
+        for (Map.Entry<MemoryPoolMXBean, long[]> entry : PREVIOUS_THRESHOLDS.entrySet()) {
+            MemoryPoolMXBean memoryPool = entry.getKey();
+            if (memoryPool.isUsageThresholdSupported()) {
+                memoryPool.setUsageThreshold(entry.getValue()[0]);
+            }
+            if (memoryPool.isCollectionUsageThresholdSupported()) {
+                memoryPool.setCollectionUsageThreshold(entry.getValue()[1]);
+            }
+        }
+        PREVIOUS_THRESHOLDS.clear();
+    }
+
+    private static void applyThresholds() {
+        // lowest threshold of started monitors is set, thresholds already set lower are kept,
+        // pressure below own threshold is simply ignored by each monitor
+        double usageThreshold = 1;
+        for (MemoryPressureMonitor monitor : STARTED_MONITORS) {
+            usageThreshold = Math.min(usageThreshold, monitor.usageThreshold);
+        }
+        for (Map.Entry<MemoryPoolMXBean, long[]> entry : PREVIOUS_THRESHOLDS.entrySet()) {
+            MemoryPoolMXBean memoryPool = entry.getKey();
+            long threshold = (long) (memoryPool.getUsage().getMax() * usageThreshold);
+            if (memoryPool.isUsageThresholdSupported()) {
+                memoryPool.setUsageThreshold(lowest(entry.getValue()[0], threshold));
+            }
+            if (memoryPool.isCollectionUsageThresholdSupported()) {
+                memoryPool.setCollectionUsageThreshold(lowest(entry.getValue()[1], threshold));
+            }
+        }
+    }
+
+    private static long lowest(long previous, long threshold) {
+        // zero threshold means disabled
+        return previous == 0 || previous > threshold ? threshold : previous;
+    }
+}
@@ -0,0 +1,371 @@
+package test.task.pool.impl;
+
+import test.task.pool.IllegalObjectException;
+import test.task.pool.NotOpenedException;
+import test.task.pool.ObjectPool;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class MultiplexedObjectPool<R> implements ObjectPool<R> {
+    private volatile boolean isOpened = false;
+    private final Lock isOpenedLock = new ReentrantLock();
+    private final Lock acquireLock = new ReentrantLock();
+    private final Condition acquireCondition = acquireLock.newCondition();
+    private final Condition releaseCondition = acquireLock.newCondition();
+    private final Condition removeCondition = acquireLock.newCondition();
+    private final Map<R, Slot> slots = new IdentityHashMap<>();
+    private final NavigableSet<Slot> candidates = new TreeSet<>();
+    private final Set<R> removeQueue = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final int maxBorrowers;
+    private long slotSequence;
+    private int borrowed;
+    private int availableUnits;
+
+    public MultiplexedObjectPool(int maxBorrowers) {
+        if (maxBorrowers <= 0) {
+            throw new IllegalArgumentException("Max borrowers should be positive");
+        }
+        this.maxBorrowers = maxBorrowers;
+    }
+
+    public void open() {
+        try {
+            isOpenedLock.lock();
+            isOpened = true;
+        } finally {
+            isOpenedLock.unlock();
+        }
+    }
+
+    public boolean isOpen() {
+        try {
+            isOpenedLock.lock();
+            return isOpened;
+        } finally {
+            isOpenedLock.unlock();
+        }
+    }
+
+    public void close() throws InterruptedException {
+        try {
+            isOpenedLock.lock();
+            isOpened = false;
+        } finally {
+            isOpenedLock.unlock();
+        }
+
+        try {
+            acquireLock.lock();
+            while (borrowed > 0) {
+                releaseCondition.await();
+            }
+            cleanUp();
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public void closeNow() {
+        try {
+            isOpenedLock.lock();
+            isOpened = false;
+        } finally {
+            isOpenedLock.unlock();
+        }
+
+        try {
+            acquireLock.lock();
+            cleanUp();
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public R acquire() throws NotOpenedException, InterruptedException {
+        return acquire(1);
+    }
+
+    public R acquire(long timeout, TimeUnit timeUnit) throws NotOpenedException, InterruptedException {
+        return acquire(1, timeout, timeUnit);
+    }
+
+    public R acquire(int units) throws NotOpenedException, InterruptedException {
+        validateUnits(units);
+        checkIsOpened();
+
+        try {
+            acquireLock.lock();
+            while (!fits(units) && isOpened) {
+                acquireCondition.await();
+            }
+            return borrow(units, false);
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public R acquire(int units, long timeout, TimeUnit timeUnit) throws NotOpenedException, InterruptedException {
+        validateUnits(units);
+        validateTimeout(timeout, timeUnit);
+        checkIsOpened();
+
+        try {
+            acquireLock.lock();
+            long nanos = timeUnit.toNanos(timeout);
+            while (!fits(units) && isOpened && nanos > 0) {
+                nanos = acquireCondition.awaitNanos(nanos);
+            }
+            return borrow(units, true);
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public void release(R resource) throws IllegalObjectException {
+        release(resource, 1);
+    }
+
+    public void release(R resource, int units) throws IllegalObjectException {
+        validateResource(resource);
+        validateUnits(units);
+
+        try {
+            acquireLock.lock();
+            Slot slot = slots.get(resource);
+            if (slot == null || slot.used < units) {
+                return;
+            }
+            candidates.remove(slot);
+            slot.used -= units;
+            borrowed -= units;
+            if (!removeQueue.contains(resource)) {
+                candidates.add(slot);
+                availableUnits += units;
+                // waiters ask for different amounts of units, each of them has to recheck
+                acquireCondition.signalAll();
+            } else if (slot.used == 0) {
+                slots.remove(resource);
+                removeQueue.remove(resource);
+                removeCondition.signalAll();
+            }
+            releaseCondition.signal();
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public boolean add(R resource) throws IllegalObjectException {
+        return add(resource, maxBorrowers);
+    }
+
+    public boolean add(R resource, int weight) throws IllegalObjectException {
+        validateResource(resource);
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight should be positive");
+        }
+
+        try {
+            acquireLock.lock();
+            if (slots.containsKey(resource)) {
+                return false;
+            }
+            Slot slot = new Slot(resource, weight, slotSequence++);
+            slots.put(resource, slot);
+            candidates.add(slot);
+            availableUnits += weight;
+            acquireCondition.signalAll();
+            return true;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public boolean remove(R resource) throws InterruptedException, IllegalObjectException {
+        validateResource(resource);
+
+        try {
+            acquireLock.lock();
+            Slot slot = slots.get(resource);
+            if (slot == null) {
+                return false;
+            }
+            if (candidates.remove(slot)) {
+                availableUnits -= slot.free();
+            }
+            if (slot.used == 0) {
+                slots.remove(resource);
+                return true;
+            }
+            removeQueue.add(resource);
+            while (removeQueue.contains(resource)) {
+                removeCondition.await();
+            }
+            return true;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public boolean removeNow(R resource) throws IllegalObjectException {
+        validateResource(resource);
+
+        try {
+            acquireLock.lock();
+            Slot slot = slots.remove(resource);
+            if (slot == null) {
+                return false;
+            }
+            if (candidates.remove(slot)) {
+                availableUnits -= slot.free();
+            }
+            borrowed -= slot.used;
+            if (removeQueue.remove(resource)) {
+                removeCondition.signalAll();
+            }
+            releaseCondition.signal();
+            return true;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public int getBorrowers(R resource) {
+        try {
+            acquireLock.lock();
+            Slot slot = slots.get(resource);
+            return slot == null ? 0 : slot.used;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    public int getAvailableUnits() {
+        try {
+            acquireLock.lock();
+            return availableUnits;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MultiplexedObjectPool{" +
+                "maxBorrowers=" + maxBorrowers +
+                ", slots=" + slots.values() +
+                ", removeQueue=" + removeQueue +
+                '}';
+    }
+
+    private boolean fits(int units) {
+        // candidates are ordered by free units, if the first one does not fit no other does
+        return availableUnits >= units && !candidates.isEmpty() && candidates.first().free() >= units;
+    }
+
+    private R borrow(int units, boolean nullable) throws NotOpenedException {
+        try {
+            isOpenedLock.lock();
+            if (!isOpened) {
+                throw new NotOpenedException();
+            }
+            if (!fits(units)) {
+                if (!nullable) {
+                    throw new IllegalArgumentException();
+                }
+                return null;
+            }
+            // least loaded resource, which has the most free units
+            Slot slot = candidates.pollFirst();
+            slot.used += units;
+            borrowed += units;
+            availableUnits -= units;
+            if (slot.free() > 0) {
+                candidates.add(slot);
+            }
+            return slot.resource;
+        } finally {
+            isOpenedLock.unlock();
+        }
+    }
+
+    private void checkIsOpened() throws NotOpenedException {
+        try {
+            isOpenedLock.lock();
+            if (!isOpened) {
+                throw new NotOpenedException();
+            }
+        } finally {
+            isOpenedLock.unlock();
+        }
+    }
+
+    private void cleanUp() {
+        slots.clear();
+        candidates.clear();
+        removeQueue.clear();
+        borrowed = 0;
+        availableUnits = 0;
+
+        releaseCondition.signalAll();
+        acquireCondition.signalAll();
+        removeCondition.signalAll();
+    }
+
+    private void validateResource(R resource) throws IllegalObjectException {
+        if (resource == null) {
+            throw new IllegalObjectException("Object can not be null");
+        }
+    }
+
+    private void validateUnits(int units) {
+        if (units <= 0) {
+            throw new IllegalArgumentException("Units should be positive");
+        }
+    }
+
+    private void validateTimeout(long timeout, TimeUnit timeUnit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout should not be negative");
+        }
+        if (timeUnit == null) {
+            throw new IllegalArgumentException("Time unit should not be null");
+        }
+    }
+
+    private final class Slot implements Comparable<Slot> {
+        private final R resource;
+        private final int weight;
+        private final long sequence;
+        private int used;
+
+        private Slot(R resource, int weight, long sequence) {
+            this.resource = resource;
+            this.weight = weight;
+            this.sequence = sequence;
+        }
+
+        private int free() {
+            return weight - used;
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int result = Integer.compare(other.free(), free());
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public String toString() {
+            return resource + "(" + used + "/" + weight + ")";
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package test.task.pool.impl;
+
+import test.task.pool.IllegalObjectException;
+import test.task.pool.NotOpenedException;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class PoolPartition<R> {
+    static final int RESERVATION_PRIORITY_BOOST = 1000;
+
+    private final ConcurrentObjectPool<R> pool;
+    private final String name;
+    private final int reserved;
+    private final int ceiling;
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger peakInUse = new AtomicInteger();
+    private final AtomicLong acquireCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong acquireWaitNanos = new AtomicLong();
+    private final Set<R> acquired = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    private final Lock ceilingLock = new ReentrantLock();
+    private final Condition ceilingCondition = ceilingLock.newCondition();
+
+    PoolPartition(ConcurrentObjectPool<R> pool, String name, int reserved, int ceiling) {
+        this.pool = pool;
+        this.name = name;
+        this.reserved = reserved;
+        this.ceiling = ceiling;
+    }
+
+    public R acquire() throws NotOpenedException, InterruptedException {
+        long start = System.nanoTime();
+        int slot = takeSlot(false, 0);
+        R resource = null;
+        try {
+            resource = pool.acquire(priority(slot));
+            return resource;
+        } finally {
+            onAcquired(resource, start);
+        }
+    }
+
+    public R acquire(long timeout, TimeUnit timeUnit) throws NotOpenedException, InterruptedException {
+        if (timeout < 0 || timeUnit == null) {
+            throw new IllegalArgumentException("Timeout should not be negative");
+        }
+
+        long start = System.nanoTime();
+        long nanos = timeUnit.toNanos(timeout);
+        int slot = takeSlot(true, nanos);
+        if (slot < 0) {
+            timeoutCount.incrementAndGet();
+            return null;
+        }
+        R resource = null;
+        try {
+            long remaining = Math.max(0, nanos - (System.nanoTime() - start));
+            resource = pool.acquire(priority(slot), remaining, TimeUnit.NANOSECONDS);
+            if (resource == null) {
+                timeoutCount.incrementAndGet();
+            }
+            return resource;
+        } finally {
+            onAcquired(resource, start);
+        }
+    }
+
+    public void release(R resource) throws IllegalObjectException {
+        // slot belongs to partition which acquired resource, release through other partition would leak it
+        if (!acquired.remove(resource)) {
+            throw new IllegalObjectException("Object was not acquired through partition " + name);
+        }
+        pool.release(resource);
+        releaseSlot();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getReserved() {
+        return reserved;
+    }
+
+    public int getCeiling() {
+        return ceiling;
+    }
+
+    public int getInUse() {
+        return inUse.get();
+    }
+
+    public int getPeakInUse() {
+        return peakInUse.get();
+    }
+
+    public long getAcquireCount() {
+        return acquireCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getAcquireWaitNanos() {
+        return acquireWaitNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return "PoolPartition{" +
+                "name='" + name + '\'' +
+                ", reserved=" + reserved +
+                ", ceiling=" + ceiling +
+                ", inUse=" + inUse +
+                '}';
+    }
+
+    private int priority(int slot) {
+        // acquires within reservation overtake borrowers, so reserved capacity is reclaimed on release
+        return slot < reserved
+                ? ConcurrentObjectPool.DEFAULT_PRIORITY + RESERVATION_PRIORITY_BOOST
+                : ConcurrentObjectPool.DEFAULT_PRIORITY;
+    }
+
+    void wakeUp() {
+        try {
+            ceilingLock.lock();
+            ceilingCondition.signalAll();
+        } finally {
+            ceilingLock.unlock();
+        }
+    }
+
+    private int takeSlot(boolean timed, long nanos) throws NotOpenedException, InterruptedException {
+        while (true) {
+            if (!pool.isOpen()) {
+                throw new NotOpenedException();
+            }
+            int current = inUse.get();
+            if (current < ceiling) {
+                if (inUse.compareAndSet(current, current + 1)) {
+                    peakInUse.accumulateAndGet(current + 1, Math::max);
+                    return current;
+                }
+                continue;
+            }
+            try {
+                ceilingLock.lock();
+                while (inUse.get() >= ceiling) {
+                    // pool wakes ceiling waiters when it closes
+                    if (!pool.isOpen()) {
+                        throw new NotOpenedException();
+                    }
+                    if (!timed) {
+                        ceilingCondition.await();
+                    } else if (nanos <= 0) {
+                        return -1;
+                    } else {
+                        nanos = ceilingCondition.awaitNanos(nanos);
+                    }
+                }
+            } finally {
+                ceilingLock.unlock();
+            }
+        }
+    }
+
+    private void releaseSlot() {
+        inUse.decrementAndGet();
+        try {
+            ceilingLock.lock();
+            ceilingCondition.signal();
+        } finally {
+            ceilingLock.unlock();
+        }
+    }
+
+    private void onAcquired(R resource, long start) {
+        acquireWaitNanos.addAndGet(System.nanoTime() - start);
+        if (resource == null) {
+            releaseSlot();
+        } else {
+            acquired.add(resource);
+            acquireCount.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package test.task.pool.impl;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntToDoubleFunction;
+
+public interface SelectionStrategy {
+
+    // returns index of available resource to acquire, lower score means healthier resource
+    int select(int size, IntToDoubleFunction score);
+
+    static SelectionStrategy mostRecentlyReleased() {
+        return (size, score) -> size - 1;
+    }
+
+    static SelectionStrategy powerOfTwoChoices() {
+        return (size, score) -> {
+            if (size == 1) {
+                return 0;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            if (second >= first) {
+                second++;
+            }
+            return score.applyAsDouble(first) <= score.applyAsDouble(second) ? first : second;
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package test.task.pool.impl;
+
+import test.task.pool.ResourceFactory;
+
+public class WarmUp<R> {
+    private final ResourceFactory<R> factory;
+    private final int count;
+    private final int parallelism;
+
+    public WarmUp(ResourceFactory<R> factory, int count, int parallelism) {
+        if (factory == null) {
+            throw new IllegalArgumentException("Factory should not be null");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Count should not be negative");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism should be positive");
+        }
+        this.factory = factory;
+        this.count = count;
+        this.parallelism = parallelism;
+    }
+
+    public ResourceFactory<R> getFactory() {
+        return factory;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUp{" +
+                "count=" + count +
+                ", parallelism=" + parallelism +
+                '}';
+    }
+}
@@ -0,0 +1,85 @@
+package test.task.pool.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class WarmUpProgress {
+    private final int target;
+    private final CompletableFuture<Integer> completion = new CompletableFuture<>();
+    private int created;
+    private int failed;
+
+    WarmUpProgress(int target) {
+        this.target = target;
+        if (target == 0) {
+            completion.complete(0);
+        }
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    public synchronized int getCreated() {
+        return created;
+    }
+
+    public synchronized int getFailed() {
+        return failed;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    public CompletableFuture<Integer> getCompletion() {
+        return completion;
+    }
+
+    public synchronized boolean awaitReady(int count, long timeout, TimeUnit timeUnit) throws InterruptedException {
+        long nanos = timeUnit.toNanos(timeout);
+        long deadline = System.nanoTime() + nanos;
+        while (created < count && created + failed < target) {
+            if (nanos <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, nanos);
+            nanos = deadline - System.nanoTime();
+        }
+        return created >= count;
+    }
+
+    void onCreated() {
+        update(true);
+    }
+
+    void onFailed() {
+        update(false);
+    }
+
+    private void update(boolean success) {
+        int result;
+        synchronized (this) {
+            if (success) {
+                created++;
+            } else {
+                failed++;
+            }
+            notifyAll();
+            if (created + failed < target) {
+                return;
+            }
+            result = created;
+        }
+        completion.complete(result);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "WarmUpProgress{" +
+                "target=" + target +
+                ", created=" + created +
+                ", failed=" + failed +
+                '}';
+    }
+}
@@ -0,0 +1,92 @@
+package test.task.pool.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AdaptivePoolSizerTest {
+    private ConcurrentObjectPool<String> pool;
+    private AdaptivePoolSizer<String> sizer;
+    private AtomicInteger created;
+
+    @BeforeMethod
+    public void setUp() {
+        pool = new ConcurrentObjectPool<>();
+        pool.open();
+        created = new AtomicInteger();
+        sizer = new AdaptivePoolSizer<>(pool, () -> "R" + created.incrementAndGet(), 2, 4, 1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testGrowsToMinSize() throws Exception {
+        sizer.sample();
+        Assert.assertEquals(pool.getAvailableCount(), 2);
+        Assert.assertEquals(pool.getMaxSize(), 2);
+    }
+
+    @Test
+    public void testGrowsWhenSaturated() throws Exception {
+        sizer.sample();
+        pool.acquire();
+        pool.acquire();
+
+        sizer.sample();
+        Assert.assertEquals(pool.getMaxSize(), 3);
+        Assert.assertEquals(pool.getAvailableCount(), 1);
+    }
+
+    @Test
+    public void testDoesNotGrowAboveMaxSize() throws Exception {
+        sizer.sample();
+        for (int i = 0; i < 4; i++) {
+            pool.acquire();
+            sizer.sample();
+        }
+        Assert.assertEquals(pool.getMaxSize(), 4);
+        Assert.assertEquals(created.get(), 4);
+    }
+
+    @Test
+    public void testShrinksAfterIdleSamples() throws Exception {
+        pool.setMaxSize(4);
+        for (int i = 0; i < 4; i++) {
+            pool.add("I" + i);
+        }
+
+        sizer.sample();
+        sizer.sample();
+        Assert.assertEquals(pool.getAvailableCount(), 4);
+
+        sizer.sample();
+        Assert.assertEquals(pool.getMaxSize(), 3);
+        Assert.assertEquals(pool.getAvailableCount(), 3);
+    }
+
+    @Test
+    public void testDoesNotShrinkBelowReservations() throws Exception {
+        pool.setMaxSize(4);
+        for (int i = 0; i < 4; i++) {
+            pool.add("I" + i);
+        }
+        pool.createPartition("batch", 4, 4);
+
+        for (int i = 0; i < 3; i++) {
+            sizer.sample();
+        }
+        Assert.assertEquals(pool.getMaxSize(), 4);
+        Assert.assertEquals(pool.getAvailableCount(), 4);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMinSizeAboveMaxSize() throws Exception {
+        new AdaptivePoolSizer<>(pool, () -> "A", 3, 2, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testZeroTargetWait() throws Exception {
+        new AdaptivePoolSizer<>(pool, () -> "A", 1, 2, 0, TimeUnit.SECONDS);
+    }
+}
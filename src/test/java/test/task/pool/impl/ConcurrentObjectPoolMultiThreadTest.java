@@ -204,6 +204,99 @@ public class ConcurrentObjectPoolMultiThreadTest {
                 "acquired");
     }
 
+    @Test
+    public void testAcquirePriority() throws Exception {
+        String resource1 = "A";
+        pool.add(resource1);
+
+        Flow flow = new Flow(50)
+                .addStep(pool::acquire, "acquired")
+                .addStep("try to acquire low", () -> pool.acquire(0), "acquired low")
+                .addStep("try to acquire high", () -> pool.acquire(10), "acquired high")
+                .addStep("release", () -> pool.release(resource1))
+                .addStep("release", () -> pool.release(resource1));
+
+        flow.runAndWait();
+        flow.verify("acquired",
+                "try to acquire low",
+                "try to acquire high",
+                "release",
+                "acquired high",
+                "release",
+                "acquired low");
+    }
+
+    @Test
+    public void testAcquirePriorityAging() throws Exception {
+        String resource1 = "A";
+        pool.add(resource1);
+        pool.setPriorityAging(10, TimeUnit.MILLISECONDS);
+
+        Flow flow = new Flow(50)
+                .addStep(pool::acquire, "acquired")
+                .addStep("try to acquire low", () -> pool.acquire(0), "acquired low")
+                .addStep("try to acquire high", () -> pool.acquire(1), "acquired high")
+                .addStep("release", () -> pool.release(resource1))
+                .addStep("release", () -> pool.release(resource1));
+
+        flow.runAndWait();
+        flow.verify("acquired",
+                "try to acquire low",
+                "try to acquire high",
+                "release",
+                "acquired low",
+                "release",
+                "acquired high");
+    }
+
+    @Test
+    public void testTimedAcquireDoesNotOvertakeWaiter() throws Exception {
+        String resource1 = "A";
+        pool.add(resource1);
+        AtomicReference<String> overtaken = new AtomicReference<>();
+
+        Flow flow = new Flow(50)
+                .addStep(pool::acquire, "acquired")
+                .addStep("try to acquire high", () -> pool.acquire(10), "acquired high")
+                .addStep("release", () -> {
+                    pool.release(resource1);
+                    overtaken.set(pool.acquire(0, TimeUnit.MILLISECONDS));
+                    if (overtaken.get() != null) {
+                        pool.release(overtaken.get());
+                    }
+                });
+
+        flow.runAndWait();
+        flow.verify("acquired",
+                "try to acquire high",
+                "release",
+                "acquired high");
+        Assert.assertNull(overtaken.get());
+    }
+
+    @Test
+    public void testAcquireWithExtremePriority() throws Exception {
+        String resource1 = "A";
+        pool.add(resource1);
+        pool.setPriorityAging(1, TimeUnit.DAYS);
+
+        Flow flow = new Flow(50)
+                .addStep(pool::acquire, "acquired")
+                .addStep("try to acquire min", () -> pool.acquire(Integer.MIN_VALUE), "acquired min")
+                .addStep("try to acquire max", () -> pool.acquire(Integer.MAX_VALUE), "acquired max")
+                .addStep("release", () -> pool.release(resource1))
+                .addStep("release", () -> pool.release(resource1));
+
+        flow.runAndWait();
+        flow.verify("acquired",
+                "try to acquire min",
+                "try to acquire max",
+                "release",
+                "acquired max",
+                "release",
+                "acquired min");
+    }
+
     @Test(enabled = false)
     public void testAcquireAtTheSameTime() throws Exception {
         String resource1 = "A";
@@ -295,6 +388,33 @@ public class ConcurrentObjectPoolMultiThreadTest {
         Assert.assertEquals(0, errorCounter.get());
     }
 
+    @Test(timeOut = 20000)
+    public void testAcquireReleaseWithPriorities() throws Exception {
+        pool.add("A");
+        pool.add("B");
+
+        AtomicInteger errorCounter = new AtomicInteger();
+        AtomicInteger finishedCounter = new AtomicInteger();
+        Flow flow = new Flow(0);
+        for (int i = 0; i < 16; i++) {
+            int priority = i % 4;
+            flow.addStep(0, 1, () -> {
+                for (int j = 0; j < 2000; j++) {
+                    try {
+                        pool.release(pool.acquire(priority));
+                    } catch (Exception e) {
+                        errorCounter.incrementAndGet();
+                    }
+                }
+                finishedCounter.incrementAndGet();
+            });
+        }
+
+        flow.runAndWait();
+        Assert.assertEquals(errorCounter.get(), 0);
+        Assert.assertEquals(finishedCounter.get(), 16);
+    }
+
     @Test
     public void testAcquireReleaseAddRemove() throws Exception {
         String resource1 = "A";
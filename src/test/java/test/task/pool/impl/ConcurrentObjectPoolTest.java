@@ -6,7 +6,15 @@ import org.testng.annotations.Test;
 import test.task.pool.IllegalObjectException;
 import test.task.pool.NotOpenedException;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ConcurrentObjectPoolTest {
     private ConcurrentObjectPool<String> pool;
@@ -23,6 +31,61 @@ public class ConcurrentObjectPoolTest {
         Assert.assertTrue(pool.isOpen());
     }
 
+    @Test
+    public void testOpenWithWarmUp() throws Exception {
+        WarmUpProgress progress = pool.open(new WarmUp<>(() -> new String("A"), 10, 4));
+        Assert.assertTrue(pool.isOpen());
+        Assert.assertEquals(progress.getCompletion().get(1, TimeUnit.SECONDS), Integer.valueOf(10));
+        Assert.assertEquals(pool.getAvailableCount(), 10);
+    }
+
+    @Test
+    public void testOpenWithWarmUpFailures() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        WarmUpProgress progress = pool.open(new WarmUp<>(() -> {
+            if (counter.incrementAndGet() % 2 == 0) {
+                throw new IllegalStateException();
+            }
+            return new String("A");
+        }, 4, 2));
+        Assert.assertEquals(progress.getCompletion().get(1, TimeUnit.SECONDS), Integer.valueOf(2));
+        Assert.assertEquals(progress.getFailed(), 2);
+    }
+
+    @Test
+    public void testAcquireDuringWarmUp() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger counter = new AtomicInteger();
+        WarmUpProgress progress = pool.open(new WarmUp<>(() -> {
+            if (counter.incrementAndGet() > 1) {
+                latch.await();
+            }
+            return new String("A");
+        }, 3, 3));
+
+        Assert.assertTrue(progress.awaitReady(1, 1, TimeUnit.SECONDS));
+        Assert.assertNotNull(pool.acquire(1, TimeUnit.SECONDS));
+        Assert.assertFalse(progress.isDone());
+
+        latch.countDown();
+        Assert.assertEquals(progress.getCompletion().get(1, TimeUnit.SECONDS), Integer.valueOf(3));
+    }
+
+    @Test
+    public void testCloseDuringWarmUp() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        WarmUpProgress progress = pool.open(new WarmUp<>(() -> {
+            latch.await();
+            return new String("A");
+        }, 2, 2));
+
+        pool.closeNow();
+        latch.countDown();
+        Assert.assertEquals(progress.getCompletion().get(1, TimeUnit.SECONDS), Integer.valueOf(0));
+        Assert.assertEquals(progress.getFailed(), 2);
+        Assert.assertEquals(pool.getAvailableCount(), 0);
+    }
+
     @Test
     public void testClose() throws Exception {
         pool.open();
@@ -37,6 +100,68 @@ public class ConcurrentObjectPoolTest {
         Assert.assertFalse(pool.isOpen());
     }
 
+    @Test
+    public void testCloseAsync() throws Exception {
+        pool.open();
+        pool.add("A");
+        Assert.assertTrue(pool.closeAsync().isDone());
+        Assert.assertFalse(pool.isOpen());
+        Assert.assertEquals(pool.getAvailableCount(), 0);
+    }
+
+    @Test
+    public void testCloseAsyncWaitsForRelease() throws Exception {
+        pool.open();
+        pool.add("A");
+        String acquired = pool.acquire();
+
+        CompletableFuture<Void> future = pool.closeAsync();
+        Assert.assertFalse(future.isDone());
+
+        pool.release(acquired);
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals(pool.getBusyCount(), 0);
+    }
+
+    @Test(expectedExceptions = NotOpenedException.class)
+    public void testAcquireWhileDraining() throws Exception {
+        pool.open();
+        pool.add("A");
+        pool.add("B");
+        pool.acquire();
+        pool.closeAsync();
+        pool.acquire();
+    }
+
+    @Test
+    public void testOpenWhileDraining() throws Exception {
+        pool.open();
+        pool.add("A");
+        String acquired = pool.acquire();
+        CompletableFuture<Void> future = pool.closeAsync(1, TimeUnit.MINUTES);
+        try {
+            pool.open();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertFalse(pool.isOpen());
+        }
+
+        pool.release(acquired);
+        Assert.assertTrue(future.isDone());
+        pool.open();
+        Assert.assertTrue(pool.isOpen());
+    }
+
+    @Test
+    public void testCloseAsyncDeadline() throws Exception {
+        pool.open();
+        pool.add("A");
+        pool.acquire();
+
+        pool.closeAsync(10, TimeUnit.MILLISECONDS).get(1, TimeUnit.SECONDS);
+        Assert.assertEquals(pool.getBusyCount(), 0);
+    }
+
     @Test
     public void testAdd() throws Exception {
         pool.open();
@@ -80,6 +205,85 @@ public class ConcurrentObjectPoolTest {
         Assert.assertEquals(pool.acquire(1, TimeUnit.MILLISECONDS), "A");
     }
 
+    @Test
+    public void testAcquireWithPriority() throws Exception {
+        pool.open();
+        pool.add("A");
+        Assert.assertEquals(pool.acquire(5), "A");
+        Assert.assertNull(pool.acquire(5, 1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSetPriorityAgingNotPositive() throws Exception {
+        pool.setPriorityAging(0, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testAcquireCreatesResource() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            pool.setFactory(() -> "A", 1, executor);
+            pool.open();
+            Assert.assertEquals(pool.acquire(1, TimeUnit.SECONDS), "A");
+            Assert.assertEquals(pool.getPendingCreations(), 0);
+            Assert.assertEquals(pool.getBusyCount(), 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAcquireCoalescesCreations() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        ExecutorService acquirers = Executors.newFixedThreadPool(5);
+        try {
+            pool.setFactory(() -> {
+                counter.incrementAndGet();
+                latch.await();
+                return new String("A");
+            }, 2, executor);
+            pool.open();
+
+            List<Future<String>> acquired = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                acquired.add(acquirers.submit(() -> pool.acquire(1, TimeUnit.SECONDS)));
+            }
+            Thread.sleep(100);
+            Assert.assertEquals(counter.get(), 2);
+            Assert.assertEquals(pool.getPendingCreations(), 2);
+
+            latch.countDown();
+            for (Future<String> future : acquired) {
+                Assert.assertNotNull(future.get());
+            }
+            Assert.assertEquals(counter.get(), 5);
+        } finally {
+            executor.shutdownNow();
+            acquirers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAcquireRetriesFailedCreation() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            pool.setFactory(() -> {
+                if (counter.incrementAndGet() == 1) {
+                    throw new IllegalStateException();
+                }
+                return "A";
+            }, 1, executor);
+            pool.open();
+            Assert.assertEquals(pool.acquire(1, TimeUnit.SECONDS), "A");
+            Assert.assertEquals(counter.get(), 2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testRelease() throws Exception {
         pool.open();
@@ -88,6 +292,251 @@ public class ConcurrentObjectPoolTest {
         pool.release(acquired);
     }
 
+    @Test
+    public void testReleaseWithPassivator() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            pool.setPassivator(resource -> latch.await(), executor);
+            pool.open();
+            pool.add("A");
+            pool.release(pool.acquire());
+            Assert.assertEquals(pool.getAvailableCount(), 0);
+            Assert.assertEquals(pool.getBusyCount(), 1);
+
+            latch.countDown();
+            Assert.assertEquals(pool.acquire(1, TimeUnit.SECONDS), "A");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReleaseWithFailedPassivation() throws Exception {
+        pool.setPassivator(resource -> {
+            throw new IllegalStateException();
+        }, Runnable::run);
+        pool.open();
+        pool.add("A");
+        pool.release(pool.acquire());
+        Assert.assertEquals(pool.getAvailableCount(), 0);
+        Assert.assertEquals(pool.getBusyCount(), 0);
+    }
+
+    @Test
+    public void testCloseAsyncWaitsForPassivation() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            pool.setPassivator(resource -> latch.await(), executor);
+            pool.open();
+            pool.add("A");
+            pool.release(pool.acquire());
+
+            CompletableFuture<Void> future = pool.closeAsync();
+            Assert.assertFalse(future.isDone());
+
+            latch.countDown();
+            future.get(1, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRemoveAsyncWhilePassivating() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            pool.setPassivator(resource -> latch.await(), executor);
+            pool.open();
+            String resource = "A";
+            pool.add(resource);
+            pool.release(pool.acquire());
+
+            CompletableFuture<Boolean> future = pool.removeAsync(resource);
+            Assert.assertFalse(future.isDone());
+
+            latch.countDown();
+            Assert.assertTrue(future.get(1, TimeUnit.SECONDS));
+            Assert.assertEquals(pool.getAvailableCount(), 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReleaseReportsHealth() throws Exception {
+        pool.open();
+        pool.add("A");
+        pool.add("B");
+        String first = pool.acquire();
+        String second = pool.acquire();
+        pool.release(first, false, 100, TimeUnit.MILLISECONDS);
+        pool.release(second, true, 1, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(pool.getHealthScore(first) > pool.getHealthScore(second));
+    }
+
+    @Test
+    public void testHealthScoreSeededByFirstSample() throws Exception {
+        pool.open();
+        String resource = "A";
+        pool.add(resource);
+        pool.release(pool.acquire(), true, 100, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(pool.getHealthScore(resource), (double) TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void testAcquirePrefersHealthy() throws Exception {
+        pool.setSelectionStrategy(SelectionStrategy.powerOfTwoChoices());
+        pool.open();
+        pool.add("A");
+        pool.add("B");
+        String first = pool.acquire();
+        String second = pool.acquire();
+        pool.release(first, false, 100, TimeUnit.MILLISECONDS);
+        pool.release(second, true, 1, TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < 10; i++) {
+            String acquired = pool.acquire();
+            Assert.assertSame(acquired, second);
+            pool.release(acquired);
+        }
+    }
+
+    @Test
+    public void testHealthScoreRemoved() throws Exception {
+        pool.open();
+        String resource = "A";
+        pool.add(resource);
+        pool.release(pool.acquire(), false, 1, TimeUnit.SECONDS);
+        Assert.assertTrue(pool.getHealthScore(resource) > 0);
+
+        pool.remove(resource);
+        Assert.assertEquals(pool.getHealthScore(resource), 0.0);
+    }
+
+    @Test
+    public void testReleaseRetiresExpired() throws Exception {
+        pool.setMaxLifetime(50, TimeUnit.MILLISECONDS, 0);
+        pool.open();
+        pool.add("A");
+        String acquired = pool.acquire();
+        Thread.sleep(60);
+        pool.release(acquired);
+        Assert.assertEquals(pool.getAvailableCount(), 0);
+        Assert.assertEquals(pool.getBusyCount(), 0);
+    }
+
+    @Test
+    public void testIdleExpiredRetired() throws Exception {
+        pool.setMaxLifetime(20, TimeUnit.MILLISECONDS, 0.5);
+        pool.open();
+        pool.add("A");
+        Thread.sleep(100);
+        Assert.assertEquals(pool.getAvailableCount(), 0);
+        pool.setMaxLifetime(0, TimeUnit.MILLISECONDS, 0);
+    }
+
+    @Test
+    public void testExpiredReplacedInAdvance() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            pool.setFactory(() -> "R" + counter.incrementAndGet(), 1, executor);
+            pool.setMaxSize(1);
+            pool.open();
+            pool.add("A");
+            pool.setMaxLifetime(100, TimeUnit.MILLISECONDS, 0.2);
+            for (int i = 0; i < 30; i++) {
+                Thread.sleep(10);
+                Assert.assertTrue(pool.getAvailableCount() >= 1);
+            }
+            Assert.assertTrue(counter.get() >= 1);
+            Assert.assertFalse(pool.removeNow("A"));
+        } finally {
+            pool.setMaxLifetime(0, TimeUnit.MILLISECONDS, 0);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedReplacementKeepsCapacity() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            pool.setFactory(() -> {
+                counter.incrementAndGet();
+                throw new IllegalStateException();
+            }, 1, executor);
+            pool.setMaxSize(1);
+            pool.open();
+            pool.add("A");
+            pool.setMaxLifetime(1, TimeUnit.SECONDS, 0);
+            while (counter.get() == 0) {
+                Thread.sleep(5);
+            }
+            Assert.assertEquals(pool.getRemainingCapacity(), 0);
+            Assert.assertFalse(pool.add("B"));
+        } finally {
+            pool.setMaxLifetime(0, TimeUnit.MILLISECONDS, 0);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRetiredResourceReplacedAfterFailure() throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            pool.setFactory(() -> {
+                if (counter.incrementAndGet() == 1) {
+                    throw new IllegalStateException();
+                }
+                return "R" + counter.get();
+            }, 1, executor);
+            pool.setMaxSize(1);
+            pool.open();
+            pool.add("A");
+            String acquired = pool.acquire();
+            pool.setMaxLifetime(50, TimeUnit.MILLISECONDS, 0);
+            Thread.sleep(60);
+            pool.release(acquired);
+
+            for (int i = 0; i < 100 && pool.getAvailableCount() == 0; i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(pool.getAvailableCount(), 1);
+            Assert.assertNotSame(pool.acquire(), acquired);
+        } finally {
+            pool.setMaxLifetime(0, TimeUnit.MILLISECONDS, 0);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLifetimeSweepStoppedOnClose() throws Exception {
+        pool.setMaxLifetime(1, TimeUnit.SECONDS, 0);
+        Assert.assertFalse(pool.isLifetimeSweepScheduled());
+
+        pool.open();
+        Assert.assertTrue(pool.isLifetimeSweepScheduled());
+
+        pool.closeNow();
+        Assert.assertFalse(pool.isLifetimeSweepScheduled());
+
+        pool.open();
+        Assert.assertTrue(pool.isLifetimeSweepScheduled());
+
+        pool.close();
+        Assert.assertFalse(pool.isLifetimeSweepScheduled());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSetMaxLifetimeInvalidJitter() throws Exception {
+        pool.setMaxLifetime(1, TimeUnit.SECONDS, 1);
+    }
+
     @Test(expectedExceptions = IllegalObjectException.class)
     public void testReleaseNull() throws Exception {
         pool.open();
@@ -141,6 +590,48 @@ public class ConcurrentObjectPoolTest {
         Assert.assertFalse(pool.remove("B"));
     }
 
+    @Test
+    public void testRemoveAsync() throws Exception {
+        pool.open();
+        String resource = "A";
+        pool.add(resource);
+        pool.acquire();
+
+        CompletableFuture<Boolean> future = pool.removeAsync(resource);
+        Assert.assertFalse(future.isDone());
+
+        pool.release(resource);
+        Assert.assertTrue(future.getNow(false));
+        Assert.assertEquals(pool.getAvailableCount(), 0);
+    }
+
+    @Test
+    public void testRemoveAsyncAvailable() throws Exception {
+        pool.open();
+        String resource = "A";
+        pool.add(resource);
+        Assert.assertTrue(pool.removeAsync(resource).getNow(false));
+    }
+
+    @Test
+    public void testRemoveAsyncNotExisting() throws Exception {
+        pool.open();
+        pool.add("A");
+        Assert.assertFalse(pool.removeAsync("B").getNow(true));
+    }
+
+    @Test
+    public void testRemoveAsyncAndRemoveNow() throws Exception {
+        pool.open();
+        String resource = "A";
+        pool.add(resource);
+        pool.acquire();
+
+        CompletableFuture<Boolean> future = pool.removeAsync(resource);
+        Assert.assertTrue(pool.removeNow(resource));
+        Assert.assertTrue(future.getNow(false));
+    }
+
     @Test
     public void testRemoveNow() throws Exception {
         pool.open();
@@ -171,4 +662,70 @@ public class ConcurrentObjectPoolTest {
         Assert.assertFalse(pool.removeNow(resource));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testAddAboveMaxSize() throws Exception {
+        pool.open();
+        pool.setMaxSize(1);
+        Assert.assertTrue(pool.add("A"));
+        Assert.assertFalse(pool.add("B"));
+    }
+
+    @Test
+    public void testTrimIdle() throws Exception {
+        pool.open();
+        pool.add("A");
+        pool.add("B");
+        pool.add("C");
+        pool.acquire();
+        Assert.assertEquals(pool.trimIdle(0.5), 1);
+        Assert.assertEquals(pool.getAvailableCount(), 1);
+        Assert.assertEquals(pool.getBusyCount(), 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testTrimIdleInvalidFraction() throws Exception {
+        pool.trimIdle(2);
+    }
+
+    @Test
+    public void testRemainingCapacity() throws Exception {
+        pool.open();
+        pool.setMaxSize(3);
+        pool.add("A");
+        pool.add("B");
+        pool.acquire();
+        Assert.assertEquals(pool.getRemainingCapacity(), 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSetMaxSizeNotPositive() throws Exception {
+        pool.setMaxSize(0);
+    }
+
+    @Test
+    public void testSetMaxSizeShrinksAvailable() throws Exception {
+        pool.open();
+        pool.add("A");
+        pool.add("B");
+        pool.add("C");
+        pool.setMaxSize(2);
+        Assert.assertEquals(pool.getAvailableCount(), 2);
+    }
+
+    @Test
+    public void testSetMaxSizeKeepsBusy() throws Exception {
+        pool.open();
+        pool.add("A");
+        pool.add("B");
+        String acquired1 = pool.acquire();
+        String acquired2 = pool.acquire();
+        pool.setMaxSize(1);
+        Assert.assertEquals(pool.getBusyCount(), 2);
+
+        pool.release(acquired1);
+        pool.release(acquired2);
+        Assert.assertEquals(pool.getBusyCount(), 0);
+        Assert.assertEquals(pool.getAvailableCount(), 1);
+    }
+
+}
@@ -0,0 +1,53 @@
+package test.task.pool.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+
+public class IndexedSetTest {
+    private IndexedSet<String> set;
+
+    @BeforeMethod
+    public void setUp() {
+        set = new IndexedSet<>();
+    }
+
+    @Test
+    public void testAddIsIdentityBased() throws Exception {
+        String resource = "A";
+        Assert.assertTrue(set.add(resource));
+        Assert.assertFalse(set.add(resource));
+        Assert.assertTrue(set.add(new String(resource)));
+        Assert.assertEquals(set.size(), 2);
+    }
+
+    @Test
+    public void testRemoveAt() throws Exception {
+        set.add("A");
+        set.add("B");
+        set.add("C");
+        Assert.assertEquals(set.removeAt(0), "A");
+        Assert.assertEquals(set.get(0), "C");
+        Assert.assertTrue(set.remove("C"));
+        Assert.assertEquals(set.get(0), "B");
+        Assert.assertFalse(set.contains("A"));
+    }
+
+    @Test
+    public void testIteratorRemove() throws Exception {
+        set.add("A");
+        set.add("B");
+        set.add("C");
+        Iterator<String> iterator = set.iterator();
+        int visited = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            visited++;
+        }
+        Assert.assertEquals(visited, 3);
+        Assert.assertTrue(set.isEmpty());
+    }
+}
@@ -0,0 +1,119 @@
+package test.task.pool.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.HashMap;
+import java.util.Map;
+
+public class MemoryPressureMonitorTest {
+    private ConcurrentObjectPool<String> pool;
+    private MemoryPressureMonitor monitor;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        pool = new ConcurrentObjectPool<>();
+        pool.open();
+        for (int i = 0; i < 10; i++) {
+            pool.add("R" + i);
+        }
+        monitor = new MemoryPressureMonitor(pool, 0.8);
+    }
+
+    @Test
+    public void testBelowThreshold() throws Exception {
+        Assert.assertEquals(monitor.onUsage(new MemoryUsage(0, 700, 1000, 1000)), 0);
+        Assert.assertEquals(pool.getAvailableCount(), 10);
+    }
+
+    @Test
+    public void testTrimsInProportionToPressure() throws Exception {
+        Assert.assertEquals(monitor.onUsage(new MemoryUsage(0, 900, 1000, 1000)), 5);
+        Assert.assertEquals(pool.getAvailableCount(), 5);
+    }
+
+    @Test
+    public void testTrimsAllAtMax() throws Exception {
+        Assert.assertEquals(monitor.onUsage(new MemoryUsage(0, 1000, 1000, 1000)), 10);
+        Assert.assertEquals(pool.getAvailableCount(), 0);
+    }
+
+    @Test
+    public void testBusyNotAffected() throws Exception {
+        String acquired = pool.acquire();
+        monitor.onUsage(new MemoryUsage(0, 1000, 1000, 1000));
+        Assert.assertEquals(pool.getBusyCount(), 1);
+
+        pool.release(acquired);
+        Assert.assertEquals(pool.getAvailableCount(), 1);
+    }
+
+    @Test
+    public void testStartStopRestoresThresholds() throws Exception {
+        Map<String, Long> previous = thresholds();
+        monitor.start();
+        monitor.stop();
+        Assert.assertEquals(thresholds(), previous);
+    }
+
+    @Test
+    public void testStartKeepsLowerThreshold() throws Exception {
+        MemoryPoolMXBean memoryPool = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(bean -> bean.getType() == MemoryType.HEAP && bean.isUsageThresholdSupported()
+                        && bean.getUsage().getMax() > 0)
+                .findFirst()
+                .orElse(null);
+        if (memoryPool == null) {
+            return;
+        }
+        long previous = memoryPool.getUsageThreshold();
+        try {
+            memoryPool.setUsageThreshold(1);
+            monitor.start();
+            Assert.assertEquals(memoryPool.getUsageThreshold(), 1);
+            monitor.stop();
+            Assert.assertEquals(memoryPool.getUsageThreshold(), 1);
+        } finally {
+            memoryPool.setUsageThreshold(previous);
+        }
+    }
+
+    @Test
+    public void testMonitorsShareThresholds() throws Exception {
+        Map<String, Long> previous = thresholds();
+        MemoryPressureMonitor other = new MemoryPressureMonitor(pool, 0.9);
+        monitor.start();
+        Map<String, Long> started = thresholds();
+        other.start();
+        Assert.assertEquals(thresholds(), started);
+
+        // thresholds stay in place while other monitor is still started
+        monitor.stop();
+        Assert.assertNotEquals(thresholds(), previous);
+        other.stop();
+        Assert.assertEquals(thresholds(), previous);
+    }
+
+    private Map<String, Long> thresholds() {
+        Map<String, Long> thresholds = new HashMap<>();
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.isUsageThresholdSupported()) {
+                thresholds.put(memoryPool.getName() + " usage", memoryPool.getUsageThreshold());
+            }
+            if (memoryPool.isCollectionUsageThresholdSupported()) {
+                thresholds.put(memoryPool.getName() + " collection", memoryPool.getCollectionUsageThreshold());
+            }
+        }
+        return thresholds;
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidThreshold() throws Exception {
+        new MemoryPressureMonitor(pool, 1);
+    }
+}
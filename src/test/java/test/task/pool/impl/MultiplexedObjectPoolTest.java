@@ -0,0 +1,182 @@
+package test.task.pool.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import test.task.pool.IllegalObjectException;
+import test.task.pool.NotOpenedException;
+
+import java.util.concurrent.TimeUnit;
+
+public class MultiplexedObjectPoolTest {
+    private MultiplexedObjectPool<String> pool;
+
+    @BeforeMethod
+    public void setUp() {
+        pool = new MultiplexedObjectPool<>(2);
+    }
+
+    @Test
+    public void testOpenAndClose() throws Exception {
+        Assert.assertFalse(pool.isOpen());
+        pool.open();
+        Assert.assertTrue(pool.isOpen());
+        pool.close();
+        Assert.assertFalse(pool.isOpen());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMaxBorrowersNotPositive() throws Exception {
+        new MultiplexedObjectPool<String>(0);
+    }
+
+    @Test(expectedExceptions = IllegalObjectException.class)
+    public void testAddNull() throws Exception {
+        pool.add(null);
+    }
+
+    @Test
+    public void testAddTwice() throws Exception {
+        Assert.assertTrue(pool.add("A"));
+        Assert.assertFalse(pool.add("A"));
+    }
+
+    @Test(expectedExceptions = NotOpenedException.class)
+    public void testAcquireNotOpened() throws Exception {
+        pool.add("A");
+        pool.acquire();
+    }
+
+    @Test
+    public void testSharedAcquire() throws Exception {
+        pool.open();
+        pool.add("A");
+        Assert.assertEquals(pool.acquire(), "A");
+        Assert.assertEquals(pool.acquire(), "A");
+        Assert.assertEquals(pool.getBorrowers("A"), 2);
+        Assert.assertNull(pool.acquire(1, TimeUnit.MILLISECONDS));
+
+        pool.release("A");
+        Assert.assertEquals(pool.acquire(1, TimeUnit.MILLISECONDS), "A");
+    }
+
+    @Test
+    public void testAcquireLeastLoaded() throws Exception {
+        pool.open();
+        pool.add("A");
+        pool.add("B");
+        Assert.assertEquals(pool.acquire(), "A");
+        Assert.assertEquals(pool.acquire(), "B");
+        Assert.assertEquals(pool.acquire(), "A");
+
+        pool.release("A");
+        pool.release("A");
+        Assert.assertEquals(pool.acquire(), "A");
+    }
+
+    @Test
+    public void testAcquireUnits() throws Exception {
+        pool.open();
+        pool.add("A", 4);
+        pool.add("B", 8);
+        Assert.assertEquals(pool.getAvailableUnits(), 12);
+
+        Assert.assertEquals(pool.acquire(6), "B");
+        Assert.assertEquals(pool.acquire(3), "A");
+        Assert.assertEquals(pool.getAvailableUnits(), 3);
+        Assert.assertNull(pool.acquire(3, 1, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(pool.acquire(2), "B");
+
+        pool.release("B", 6);
+        Assert.assertEquals(pool.getAvailableUnits(), 7);
+        Assert.assertEquals(pool.acquire(5, 1, TimeUnit.MILLISECONDS), "B");
+    }
+
+    @Test
+    public void testAcquireUnitsWaitsForRelease() throws Exception {
+        pool.open();
+        pool.add("A", 4);
+        pool.acquire(3);
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+                pool.release("A", 3);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        releaser.start();
+
+        Assert.assertEquals(pool.acquire(4, 1, TimeUnit.SECONDS), "A");
+        releaser.join();
+    }
+
+    @Test
+    public void testReleaseMoreUnitsThanBorrowed() throws Exception {
+        pool.open();
+        pool.add("A", 4);
+        pool.acquire(2);
+        pool.release("A", 3);
+        Assert.assertEquals(pool.getBorrowers("A"), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAcquireUnitsNotPositive() throws Exception {
+        pool.open();
+        pool.acquire(0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAddWeightNotPositive() throws Exception {
+        pool.add("A", 0);
+    }
+
+    @Test
+    public void testRemoveWaitsForAllBorrowers() throws Exception {
+        pool.open();
+        pool.add("A");
+        pool.acquire();
+        pool.acquire();
+
+        Thread remover = new Thread(() -> {
+            try {
+                pool.remove("A");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        remover.start();
+
+        pool.release("A");
+        remover.join(100);
+        Assert.assertTrue(remover.isAlive());
+
+        pool.release("A");
+        remover.join(1000);
+        Assert.assertFalse(remover.isAlive());
+        Assert.assertEquals(pool.getBorrowers("A"), 0);
+        Assert.assertNull(pool.acquire(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testRemoveNow() throws Exception {
+        pool.open();
+        pool.add("A");
+        pool.acquire();
+        Assert.assertTrue(pool.removeNow("A"));
+        Assert.assertFalse(pool.removeNow("A"));
+        pool.release("A");
+        Assert.assertNull(pool.acquire(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testCloseNow() throws Exception {
+        pool.open();
+        pool.add("A");
+        pool.acquire();
+        pool.closeNow();
+        Assert.assertFalse(pool.isOpen());
+        Assert.assertFalse(pool.remove("A"));
+    }
+}
@@ -0,0 +1,179 @@
+package test.task.pool.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import test.task.pool.IllegalObjectException;
+import test.task.pool.NotOpenedException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PoolPartitionTest {
+    private ConcurrentObjectPool<String> pool;
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp() {
+        pool = new ConcurrentObjectPool<>();
+        pool.open();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCreatePartition() throws Exception {
+        PoolPartition<String> partition = pool.createPartition("batch", 1, 2);
+        Assert.assertSame(pool.getPartition("batch"), partition);
+        Assert.assertNull(pool.getPartition("interactive"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testCreatePartitionTwice() throws Exception {
+        pool.createPartition("batch", 1, 2);
+        pool.createPartition("batch", 1, 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testReservedAboveCeiling() throws Exception {
+        pool.createPartition("batch", 3, 2);
+    }
+
+    @Test
+    public void testReservationsWithinMaxSize() throws Exception {
+        pool.setMaxSize(3);
+        pool.createPartition("batch", 2, 3);
+        try {
+            pool.createPartition("interactive", 2, 2);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertNull(pool.getPartition("interactive"));
+        }
+        Assert.assertNotNull(pool.createPartition("interactive", 1, 2));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMaxSizeBelowReservations() throws Exception {
+        pool.createPartition("batch", 2, 3);
+        pool.setMaxSize(1);
+    }
+
+    @Test
+    public void testCeiling() throws Exception {
+        pool.add("A");
+        pool.add("B");
+        PoolPartition<String> partition = pool.createPartition("batch", 0, 1);
+
+        String acquired = partition.acquire();
+        Assert.assertNull(partition.acquire(10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(partition.getTimeoutCount(), 1);
+        Assert.assertEquals(pool.getAvailableCount(), 1);
+
+        partition.release(acquired);
+        Assert.assertNotNull(partition.acquire(10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(partition.getAcquireCount(), 2);
+        Assert.assertEquals(partition.getPeakInUse(), 1);
+    }
+
+    @Test
+    public void testReleaseThroughOtherPartition() throws Exception {
+        pool.add("A");
+        PoolPartition<String> batch = pool.createPartition("batch", 0, 1);
+        PoolPartition<String> interactive = pool.createPartition("interactive", 0, 1);
+        String acquired = batch.acquire();
+
+        try {
+            interactive.release(acquired);
+            Assert.fail();
+        } catch (IllegalObjectException e) {
+            Assert.assertEquals(batch.getInUse(), 1);
+            Assert.assertEquals(pool.getBusyCount(), 1);
+        }
+
+        batch.release(acquired);
+        Assert.assertEquals(batch.getInUse(), 0);
+        Assert.assertEquals(pool.getAvailableCount(), 1);
+    }
+
+    @Test
+    public void testCeilingWaitsForRelease() throws Exception {
+        pool.add("A");
+        pool.add("B");
+        PoolPartition<String> partition = pool.createPartition("batch", 0, 1);
+        String acquired = partition.acquire();
+
+        Future<String> waiting = executor.submit(() -> partition.acquire(1, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        Assert.assertFalse(waiting.isDone());
+
+        partition.release(acquired);
+        Assert.assertNotNull(waiting.get());
+        Assert.assertEquals(partition.getInUse(), 1);
+    }
+
+    @Test
+    public void testReservationReclaimedOnRelease() throws Exception {
+        pool.add("A");
+        PoolPartition<String> batch = pool.createPartition("batch", 0, 2);
+        PoolPartition<String> interactive = pool.createPartition("interactive", 1, 1);
+
+        // batch borrows idle capacity reserved for interactive
+        String acquired = batch.acquire();
+        Future<String> batchWaiting = executor.submit(() -> batch.acquire(1, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        Future<String> interactiveWaiting = executor.submit(() -> interactive.acquire(1, TimeUnit.SECONDS));
+        Thread.sleep(50);
+
+        batch.release(acquired);
+        Assert.assertEquals(interactiveWaiting.get(), "A");
+        Assert.assertEquals(interactive.getInUse(), 1);
+
+        interactive.release("A");
+        Assert.assertEquals(batchWaiting.get(), "A");
+    }
+
+    @Test
+    public void testSlotReleasedWhenNotOpened() throws Exception {
+        PoolPartition<String> partition = pool.createPartition("batch", 0, 1);
+        pool.closeNow();
+        try {
+            partition.acquire();
+            Assert.fail();
+        } catch (NotOpenedException e) {
+            Assert.assertEquals(partition.getInUse(), 0);
+        }
+    }
+
+    @Test
+    public void testCeilingWaiterWokenOnClose() throws Exception {
+        pool.add("A");
+        pool.add("B");
+        PoolPartition<String> partition = pool.createPartition("batch", 0, 1);
+        partition.acquire();
+
+        Future<String> waiting = executor.submit(() -> partition.acquire());
+        Thread.sleep(50);
+        Assert.assertFalse(waiting.isDone());
+
+        pool.closeNow();
+        try {
+            waiting.get(1, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof NotOpenedException);
+        }
+        try {
+            partition.acquire();
+            Assert.fail();
+        } catch (NotOpenedException ignored) {
+        }
+    }
+}